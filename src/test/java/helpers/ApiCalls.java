@@ -3,13 +3,77 @@ package helpers;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import pojo.MarketDataSnapshot;
 import pojo.Order;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import static io.restassured.RestAssured.given;
 
 public class ApiCalls {
-    private final static String BASE_URL = "http://94.130.158.237:43587/api";
-    private static RequestSpecification request = given().baseUri(BASE_URL);
+    private final static String BASE_URL = System.getProperty("baseUrl", "http://94.130.158.237:43587/api");
+    private static RequestSpecification request = given().baseUri(BASE_URL).filter(TrafficCapture.filter());
 
+    // Реплики только для чтения: -DreplicaUrls=http://localhost:8081/api,http://localhost:8082/api
+    // Если они заданы, GET /order и /marketdata по умолчанию уходят на реплики по кругу, запись - всегда на BASE_URL
+    private final static List<String> replicaUrls = Arrays
+            .stream(System.getProperty("replicaUrls", "").split(","))
+            .filter(url -> !url.isBlank())
+            .map(String::trim)
+            .toList();
+    private final static Duration REPLICA_POLL_INTERVAL = Duration.ofMillis(5);
+    private final static AtomicInteger nextReplica = new AtomicInteger();
+    private static volatile boolean readFromReplicas = !replicaUrls.isEmpty();
+    private static volatile Http2Transport http2Transport;
+
+    static {
+        // Запись трафика можно включить без изменения тестов: -DcaptureFile=traffic.bin
+        var captureFile = System.getProperty("captureFile");
+        if (captureFile != null) {
+            startCapture(Path.of(captureFile));
+            Runtime.getRuntime().addShutdownHook(new Thread(ApiCalls::stopCapture));
+        }
+    }
+
+    // Новая спецификация без параметров, накопленных общим request в предыдущих вызовах
+    private static RequestSpecification newRequest(String baseUri) {
+        return given().baseUri(baseUri).filter(TrafficCapture.filter());
+    }
+
+    public static void startCapture(Path file) {
+        TrafficCapture.start(file);
+    }
+
+    public static void stopCapture() {
+        TrafficCapture.stop();
+    }
+
+    // Общий HTTP/2 транспорт к BASE_URL для параллельной отправки заказов по одному соединению
+    public static Http2Transport http2() {
+        if (http2Transport == null) {
+            synchronized (ApiCalls.class) {
+                if (http2Transport == null) {
+                    http2Transport = new Http2Transport(BASE_URL);
+                }
+            }
+        }
+        return http2Transport;
+    }
+
+    public static void setReadFromReplicas(boolean enabled) {
+        readFromReplicas = enabled;
+    }
+
+    // Чтения идут на BASE_URL или по кругу на реплики, каждый раз через новую спецификацию
+    private static RequestSpecification newReadRequest() {
+        if (!readFromReplicas || replicaUrls.isEmpty()) {
+            return newRequest(BASE_URL);
+        }
+        return newRequest(replicaUrls.get(Math.floorMod(nextReplica.getAndIncrement(), replicaUrls.size())));
+    }
 
     public static Response createOrder(Order order) {
         Response response = request.contentType(ContentType.JSON).body(order)
@@ -34,12 +98,20 @@ public class ApiCalls {
     }
 
     public static Response getOrderById(String id) {
-        Response response = request
+        Response response = newReadRequest()
                 .queryParam("id", id).when().basePath("/order")
                 .get();
         return response;
     }
 
+    // Загрузка книги из CSV-фикстуры (см. DataGenerators.writeOrderFixture) одним потоковым запросом
+    public static Response bulkLoadOrders(Path fixture) {
+        Response response = newRequest(BASE_URL).contentType("text/csv").body(fixture.toFile())
+                .when().basePath("/order/bulk")
+                .post();
+        return response;
+    }
+
     public static Response cleanOrderbook() {
         Response response = request
                 .when().basePath("/order/clean")
@@ -48,9 +120,82 @@ public class ApiCalls {
     }
 
     public static Response getMarketDataSnapshot() {
-        Response response = request
+        Response response = newReadRequest()
+                .when().basePath("/marketdata")
+                .get();
+        return response;
+    }
+
+    // Снэпшот в выбранном представлении: ContentType.JSON или SnapshotCodec.COLUMNAR.
+    // Сжатие gzip/deflate согласуется через Accept-Encoding и распаковывается REST Assured автоматически
+    public static Response getMarketDataSnapshot(String accept) {
+        Response response = newReadRequest().accept(accept)
                 .when().basePath("/marketdata")
                 .get();
         return response;
     }
+
+    // Состояние книги на момент at, восстановленное сервером из ближайшего ключевого кадра и дельт
+    public static Response getMarketDataSnapshotAt(Instant at) {
+        Response response = newReadRequest()
+                .queryParam("at", at.toEpochMilli())
+                .when().basePath("/marketdata/history")
+                .get();
+        return response;
+    }
+
+    // Список снэпшотов с шагом step в интервале [from, to]
+    public static Response getMarketDataHistory(Instant from, Instant to, Duration step) {
+        Response response = newReadRequest()
+                .queryParam("from", from.toEpochMilli())
+                .queryParam("to", to.toEpochMilli())
+                .queryParam("step", step.toMillis())
+                .when().basePath("/marketdata/history")
+                .get();
+        return response;
+    }
+
+    public static MarketDataSnapshot readMarketDataSnapshot(Response response) {
+        var contentType = response.getContentType();
+        if (contentType != null && contentType.startsWith(SnapshotCodec.COLUMNAR)) {
+            return SnapshotCodec.decode(response.asByteArray());
+        }
+        return response.body().as(MarketDataSnapshot.class);
+    }
+
+    // Задержка репликации, которую видит клиент: заказ создается на primary, после ответа все реплики
+    // опрашиваются в одном цикле, и для каждой фиксируется момент первого ответа 200.
+    // Для реплики, не догнавшей primary за timeout, возвращается -1
+    public static List<Long> measureReplicaLagNanos(Order order, Duration timeout) {
+        createOrder(order).then().statusCode(200);
+        long createdNanos = System.nanoTime();
+        long deadlineNanos = createdNanos + timeout.toNanos();
+
+        var lags = new long[replicaUrls.size()];
+        Arrays.fill(lags, -1);
+        int pending = lags.length;
+        while (pending > 0 && System.nanoTime() < deadlineNanos) {
+            for (int i = 0; i < lags.length; i++) {
+                if (lags[i] >= 0) {
+                    continue;
+                }
+                int status = newRequest(replicaUrls.get(i))
+                        .queryParam("id", order.getId()).when().basePath("/order")
+                        .get().getStatusCode();
+                if (status == 200) {
+                    lags[i] = System.nanoTime() - createdNanos;
+                    pending--;
+                }
+            }
+            if (pending > 0) {
+                try {
+                    Thread.sleep(REPLICA_POLL_INTERVAL.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return Arrays.stream(lags).boxed().toList();
+    }
 }
@@ -1,6 +1,11 @@
 package helpers;
 
 import pojo.Order;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Random;
 
@@ -34,4 +39,38 @@ public class DataGenerators {
         var quantity = random.nextLong(10000);
         return new Order("" + id, price, quantity, "Sell");
     }
+
+    public static Order createRandomOrder(String timeInForce) {
+        var order = createRandomOrder();
+        order.setTimeInForce(timeInForce);
+        return order;
+    }
+
+    public static Order createRandomOrderForAccount(String account) {
+        var order = createRandomOrder();
+        order.setAccount(account);
+        return order;
+    }
+
+    public static Order createRandomGoodTillDateOrder(Duration timeToLive) {
+        var order = createRandomOrder("GTD");
+        order.setExpireTime(System.currentTimeMillis() + timeToLive.toMillis());
+        return order;
+    }
+
+    // CSV-фикстура для ApiCalls.bulkLoadOrders: id идут подряд с 1, остальные поля детерминированы seed,
+    // поэтому один и тот же seed всегда дает одну и ту же книгу
+    public static Path writeOrderFixture(Path file, long seed, int count) throws IOException {
+        var random = new Random(seed);
+        try (var writer = Files.newBufferedWriter(file)) {
+            writer.write("id,price,quantity,side\n");
+            for (int id = 1; id <= count; id++) {
+                var price = BigDecimal.valueOf(random.nextInt(1, 1000000), 2).toPlainString();
+                var quantity = random.nextLong(1, 10000);
+                var side = random.nextBoolean() ? "Buy" : "Sell";
+                writer.write(id + "," + price + "," + quantity + "," + side + "\n");
+            }
+        }
+        return file;
+    }
 }
@@ -0,0 +1,92 @@
+package helpers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import pojo.Order;
+
+// Асинхронный транспорт поверх HTTP/2 (h2c для http:// адресов). Все запросы одного экземпляра идут
+// параллельными потоками по одному соединению; управление потоком и лимит одновременных потоков
+// берет на себя HttpClient по SETTINGS сервера. Если сервер не поддерживает h2c, клиент остается на HTTP/1.1.
+public class Http2Transport {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+    private final AtomicReference<CompletableFuture<HttpClient.Version>> connection = new AtomicReference<>();
+
+    public Http2Transport(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    // Upgrade до h2c выполняется на первом запросе без тела, поэтому соединение поднимается дешевым
+    // GET /order?id=1 до того, как на него пойдут параллельные createOrder. Неудачный прогрев не кэшируется:
+    // следующий запрос попробует поднять соединение заново
+    public CompletableFuture<HttpClient.Version> connect() {
+        var created = new CompletableFuture<HttpClient.Version>();
+        // Проигравший CAS может застать ссылку уже сброшенной неудачным прогревом победителя - тогда пробует снова
+        while (!connection.compareAndSet(null, created)) {
+            var current = connection.get();
+            if (current != null) {
+                return current;
+            }
+        }
+        client.sendAsync(HttpRequest.newBuilder(orderUri("1")).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        connection.compareAndSet(created, null);
+                        created.completeExceptionally(error);
+                    } else {
+                        created.complete(response.version());
+                    }
+                });
+        return created;
+    }
+
+    public CompletableFuture<HttpResponse<String>> createOrder(Order order) {
+        try {
+            return createOrder(MAPPER.writeValueAsString(order));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public CompletableFuture<HttpResponse<String>> createOrder(String json) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/order/create"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    public CompletableFuture<HttpResponse<String>> deleteOrderById(String id) {
+        return send(HttpRequest.newBuilder(orderUri(id)).DELETE());
+    }
+
+    public CompletableFuture<HttpResponse<String>> getOrderById(String id) {
+        return send(HttpRequest.newBuilder(orderUri(id)).GET());
+    }
+
+    public CompletableFuture<HttpResponse<String>> cleanOrderbook() {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/order/clean")).GET());
+    }
+
+    private URI orderUri(String id) {
+        return URI.create(baseUrl + "/order?id=" + URLEncoder.encode(id, StandardCharsets.UTF_8));
+    }
+
+    // Запрос отправляется после прогрева независимо от его исхода: если сервер недоступен,
+    // ошибка придет в возвращаемый future самого запроса
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest.Builder builder) {
+        var request = builder.build();
+        return connect()
+                .handle((version, error) -> request)
+                .thenCompose(ready -> client.sendAsync(ready, HttpResponse.BodyHandlers.ofString()));
+    }
+}
@@ -0,0 +1,119 @@
+package helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import pojo.MarketDataSnapshot;
+import pojo.Order;
+
+// Колоночное бинарное представление MarketDataSnapshot (Content-Type: application/x-marketdata-columnar).
+// Формат: double tickSize, затем asks и bids. Каждая сторона: int count и три колонки по count значений -
+// id, цена в тиках, количество. Все колонки хранятся как разница с предыдущим значением колонки
+// в zigzag varint, поэтому отсортированные цены и близкие id занимают 1-2 байта на значение.
+// Сторона заказа не передается: asks - Sell, bids - Buy.
+public class SnapshotCodec {
+    public static final String COLUMNAR = "application/x-marketdata-columnar";
+    public static final double DEFAULT_TICK_SIZE = 0.01;
+
+    public static MarketDataSnapshot decode(byte[] bytes) {
+        try {
+            var in = new DataInputStream(new ByteArrayInputStream(bytes));
+            var tickSize = BigDecimal.valueOf(in.readDouble());
+            var snapshot = new MarketDataSnapshot();
+            snapshot.setAsks(readSide(in, tickSize, "Sell"));
+            snapshot.setBids(readSide(in, tickSize, "Buy"));
+            return snapshot;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed columnar snapshot", e);
+        }
+    }
+
+    public static byte[] encode(MarketDataSnapshot snapshot, double tickSize) {
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeDouble(tickSize);
+            writeSide(out, snapshot.getAsks(), BigDecimal.valueOf(tickSize));
+            writeSide(out, snapshot.getBids(), BigDecimal.valueOf(tickSize));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Order> readSide(DataInputStream in, BigDecimal tickSize, String side) throws IOException {
+        int count = in.readInt();
+        // Каждое значение колонки занимает хотя бы байт, поэтому count больше оставшихся байтов - заведомо битые данные
+        if (count < 0 || (long) count * 3 > in.available()) {
+            throw new IOException("Invalid order count " + count);
+        }
+        var ids = readColumn(in, count);
+        var ticks = readColumn(in, count);
+        var quantities = readColumn(in, count);
+
+        var orders = new ArrayList<Order>(count);
+        for (int i = 0; i < count; i++) {
+            double price = tickSize.multiply(BigDecimal.valueOf(ticks[i])).doubleValue();
+            orders.add(new Order(Long.toString(ids[i]), price, quantities[i], side));
+        }
+        return orders;
+    }
+
+    private static void writeSide(DataOutputStream out, List<Order> orders, BigDecimal tickSize) throws IOException {
+        int count = orders == null ? 0 : orders.size();
+        var ids = new long[count];
+        var ticks = new long[count];
+        var quantities = new long[count];
+        for (int i = 0; i < count; i++) {
+            var order = orders.get(i);
+            ids[i] = Long.parseLong(order.getId());
+            ticks[i] = BigDecimal.valueOf(order.getPrice()).divide(tickSize).longValueExact();
+            quantities[i] = order.getQuantity();
+        }
+        out.writeInt(count);
+        writeColumn(out, ids);
+        writeColumn(out, ticks);
+        writeColumn(out, quantities);
+    }
+
+    private static long[] readColumn(DataInputStream in, int count) throws IOException {
+        var values = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (shift > 63) {
+                    throw new IOException("Varint is too long");
+                }
+                b = in.readUnsignedByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static void writeColumn(DataOutputStream out, long[] values) throws IOException {
+        long previous = 0;
+        for (long value : values) {
+            long delta = value - previous;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                out.writeByte((int) (zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            out.writeByte((int) zigzag);
+            previous = value;
+        }
+    }
+}
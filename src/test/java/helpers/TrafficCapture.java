@@ -0,0 +1,214 @@
+package helpers;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Запись всех запросов и ответов ApiCalls в бинарный лог для последующего воспроизведения (TrafficReplay).
+// Формат файла: MAGIC, VERSION, затем записи подряд:
+// requestNanos, responseNanos (относительно начала записи), method, path (относительно BASE_URL, вместе с query),
+// заголовки запроса (количество, затем пары имя/значение), requestBody, status, responseBody.
+// path и тела пишутся как длина + байты в UTF-8, -1 означает отсутствие тела: writeUTF ограничен 64 КБ,
+// а длинный query (например, id из фаззера) в него не помещается. Тело ответа хранится уже распакованным.
+public class TrafficCapture implements Filter {
+    public static final int MAGIC = 0x54524350;
+    public static final int VERSION = 3;
+
+    // Заголовки, от которых зависит представление запроса и ответа, и которые нужно повторить при воспроизведении
+    private static final List<String> RECORDED_HEADERS = List.of("Content-Type", "Accept", "Accept-Encoding");
+
+    private static volatile TrafficCapture active;
+
+    private final DataOutputStream out;
+    private final long startNanos = System.nanoTime();
+    private boolean closed;
+
+    private TrafficCapture(Path file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    public static synchronized void start(Path file) {
+        stop();
+        try {
+            active = new TrafficCapture(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static synchronized void stop() {
+        var capture = active;
+        if (capture == null) {
+            return;
+        }
+        active = null;
+        capture.close();
+    }
+
+    // Закрытие идет под тем же монитором, что и запись, поэтому ответ, пришедший после stop(), просто не попадает в лог
+    private synchronized void close() {
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Фильтр подключается к спецификации ApiCalls постоянно и ничего не делает, пока запись не включена
+    public static Filter filter() {
+        return (requestSpec, responseSpec, ctx) -> {
+            var capture = active;
+            return capture == null ? ctx.next(requestSpec, responseSpec) : capture.filter(requestSpec, responseSpec, ctx);
+        };
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long requestNanos = System.nanoTime() - startNanos;
+        Response response = ctx.next(requestSpec, responseSpec);
+        long responseNanos = System.nanoTime() - startNanos;
+
+        var record = new Record(requestNanos, responseNanos, requestSpec.getMethod(),
+                relativePath(requestSpec.getURI(), requestSpec.getBaseUri()), recordedHeaders(requestSpec),
+                bodyBytes(requestSpec.getBody()), response.getStatusCode(), response.asByteArray());
+        synchronized (this) {
+            if (closed) {
+                return response;
+            }
+            try {
+                record.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return response;
+    }
+
+    public static List<Record> read(Path file) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a traffic capture file: " + file);
+            }
+            var records = new ArrayList<Record>();
+            while (true) {
+                long requestNanos;
+                try {
+                    requestNanos = in.readLong();
+                } catch (EOFException e) {
+                    return records;
+                }
+                records.add(new Record(requestNanos, in.readLong(), in.readUTF(),
+                        new String(readBytes(in), StandardCharsets.UTF_8),
+                        readHeaders(in), readBytes(in), in.readShort(), readBytes(in)));
+            }
+        }
+    }
+
+    private static String relativePath(String uri, String baseUri) {
+        return baseUri != null && uri.startsWith(baseUri) ? uri.substring(baseUri.length()) : uri;
+    }
+
+    private static Map<String, String> recordedHeaders(FilterableRequestSpecification requestSpec) {
+        var headers = new LinkedHashMap<String, String>();
+        for (String name : RECORDED_HEADERS) {
+            var value = name.equals("Content-Type") ? requestSpec.getContentType() : requestSpec.getHeaders().getValue(name);
+            if (value == null && name.equals("Accept-Encoding")) {
+                value = acceptEncoding(requestSpec);
+            }
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return headers;
+    }
+
+    // Если Accept-Encoding не задан явно, REST Assured добавляет его сам по списку декодеров из DecoderConfig
+    private static String acceptEncoding(FilterableRequestSpecification requestSpec) {
+        var decoders = requestSpec.getConfig().getDecoderConfig().contentDecoders();
+        if (decoders.isEmpty()) {
+            return null;
+        }
+        return decoders.stream().map(decoder -> decoder.name().toLowerCase()).collect(Collectors.joining(","));
+    }
+
+    private static byte[] bodyBytes(Object body) {
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (body instanceof File file) {
+            try {
+                return Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> readHeaders(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        var headers = new LinkedHashMap<String, String>();
+        for (int i = 0; i < count; i++) {
+            headers.put(in.readUTF(), in.readUTF());
+        }
+        return headers;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : in.readNBytes(length);
+    }
+
+    public record Record(long requestNanos, long responseNanos, String method, String path,
+                         Map<String, String> headers, byte[] requestBody, int status, byte[] responseBody) {
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(requestNanos);
+            out.writeLong(responseNanos);
+            out.writeUTF(method);
+            writeBytes(out, path.getBytes(StandardCharsets.UTF_8));
+            out.writeShort(headers.size());
+            for (var header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(header.getValue());
+            }
+            writeBytes(out, requestBody);
+            out.writeShort(status);
+            writeBytes(out, responseBody);
+        }
+    }
+}
@@ -8,6 +8,9 @@ public class MarketDataSnapshot {
 
     private List<Order> bids;
 
+    // Момент, на который восстановлен снэпшот (миллисекунды epoch). Заполняется только историческими запросами
+    private Long timestamp;
+
     public List<Order> getAsks() {
         return asks;
     }
@@ -23,4 +26,12 @@ public class MarketDataSnapshot {
     public void setBids(List<Order> bids) {
         this.bids = bids;
     }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
 }
@@ -14,6 +14,14 @@ public class Order {
 
     private String side;
 
+    // Счет, к которому применяются лимиты pre-trade риска и запрет самоисполнения
+    private String account;
+
+    // GTC, IOC, FOK или GTD. Для GTD обязателен expireTime - момент истечения в миллисекундах epoch
+    private String timeInForce;
+
+    private Long expireTime;
+
     public Order(String id, double price, long quantity, String side) {
         this.id = id;
         this.price = price;
@@ -41,6 +49,18 @@ public class Order {
         this.side = side;
     }
 
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public void setTimeInForce(String timeInForce) {
+        this.timeInForce = timeInForce;
+    }
+
+    public void setExpireTime(Long expireTime) {
+        this.expireTime = expireTime;
+    }
+
     public String getId() {
         return id;
     }
@@ -56,4 +76,16 @@ public class Order {
     public String getSide() {
         return side;
     }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getTimeInForce() {
+        return timeInForce;
+    }
+
+    public Long getExpireTime() {
+        return expireTime;
+    }
 }
@@ -0,0 +1,50 @@
+package tests;
+
+import helpers.DataGenerators;
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class OrderFixtureTests {
+
+    // Тест на проверку того, что один и тот же seed дает побайтно одинаковую фикстуру, а другой seed - другую
+    @Test
+    public void sameSeedProducesIdenticalFixture() throws IOException {
+        Path first = DataGenerators.writeOrderFixture(Files.createTempFile("orders", ".csv"), 42, 1000);
+        Path second = DataGenerators.writeOrderFixture(Files.createTempFile("orders", ".csv"), 42, 1000);
+        Path other = DataGenerators.writeOrderFixture(Files.createTempFile("orders", ".csv"), 43, 1000);
+
+        assertEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        assertNotEquals(Files.readAllBytes(first), Files.readAllBytes(other));
+    }
+
+    // Тест на проверку формата фикстуры: заголовок, количество строк, последовательные id и допустимые значения полей
+    @Test
+    public void fixtureHasValidRows() throws IOException {
+        int count = 1000;
+        List<String> lines = Files.readAllLines(DataGenerators.writeOrderFixture(Files.createTempFile("orders", ".csv"), 7, count));
+
+        assertEquals(lines.get(0), "id,price,quantity,side");
+        assertEquals(lines.size(), count + 1);
+        for (int i = 1; i <= count; i++) {
+            String[] fields = lines.get(i).split(",");
+            assertEquals(fields.length, 4);
+            assertEquals(fields[0], Integer.toString(i));
+
+            BigDecimal price = new BigDecimal(fields[1]);
+            assertTrue(price.signum() > 0 && price.compareTo(BigDecimal.valueOf(10000)) < 0, "price " + price);
+            assertEquals(price.scale(), 2);
+
+            long quantity = Long.parseLong(fields[2]);
+            assertTrue(quantity > 0 && quantity < 10000, "quantity " + quantity);
+
+            assertTrue(fields[3].equals("Buy") || fields[3].equals("Sell"), "side " + fields[3]);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package tests;
+
+import helpers.SnapshotCodec;
+import org.testng.annotations.Test;
+import pojo.MarketDataSnapshot;
+import pojo.Order;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class SnapshotCodecTests {
+
+    // Тест на проверку того, что снэпшот после кодирования и декодирования не меняется.
+    // Id и цены идут не по порядку, чтобы проверить отрицательные дельты, сторона bids пустая
+    @Test
+    public void encodeDecodeRoundTrip() {
+        var snapshot = new MarketDataSnapshot();
+        snapshot.setAsks(List.of(
+                new Order("9999", 9999.99, 9999, "Sell"),
+                new Order("1", 0.01, 1, "Sell"),
+                new Order("500", 100.5, 42, "Sell"),
+                new Order("2", 100.49, 7, "Sell")));
+        snapshot.setBids(List.of());
+
+        MarketDataSnapshot decoded = SnapshotCodec.decode(SnapshotCodec.encode(snapshot, SnapshotCodec.DEFAULT_TICK_SIZE));
+
+        assertEquals(decoded.getAsks().size(), snapshot.getAsks().size());
+        for (int i = 0; i < snapshot.getAsks().size(); i++) {
+            Order expected = snapshot.getAsks().get(i);
+            Order actual = decoded.getAsks().get(i);
+            assertEquals(actual.getId(), expected.getId());
+            assertEquals(actual.getPrice(), expected.getPrice());
+            assertEquals(actual.getQuantity(), expected.getQuantity());
+            assertEquals(actual.getSide(), expected.getSide());
+        }
+        assertEquals(decoded.getBids().size(), 0);
+    }
+
+    // Тест на проверку ошибки при декодировании снэпшота с некорректным количеством заказов
+    @Test
+    public void decodeInvalidCount() {
+        byte[] negativeCount = ByteBuffer.allocate(12).putDouble(0.01).putInt(-1).array();
+        assertThrows(UncheckedIOException.class, () -> SnapshotCodec.decode(negativeCount));
+
+        byte[] hugeCount = ByteBuffer.allocate(12).putDouble(0.01).putInt(Integer.MAX_VALUE).array();
+        assertThrows(UncheckedIOException.class, () -> SnapshotCodec.decode(hugeCount));
+    }
+}
@@ -0,0 +1,485 @@
+package tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Генеративный фаззер контракта POST /order/create.
+// Строит поток некорректных и граничных тел запроса (экстремальные числа, странные кодировки, пропущенные
+// и повторенные поля, огромные тела, глубокая вложенность) и параллельно отправляет их на сервер.
+// Для случаев с одним невалидным полем ожидается точное сообщение из документации, для остальных -
+// отказ 400 или хотя бы отсутствие ошибки сервера. По каждой категории считается распределение задержек
+// и запоминается самый медленный запрос, чтобы находить патологически медленные пути отказа.
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=tools.CreateOrderFuzzer
+//         -Dexec.args="http://localhost:8080/api 1000000 64 42"
+// Аргументы: baseUrl [количество случаев] [одновременных запросов] [seed]
+public class CreateOrderFuzzer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_PRINTED_FINDINGS = 50;
+
+    // Сообщения об ошибках валидации, зафиксированные в CreateOrderTests
+    static final String ID_NOT_INTEGER = "ID should be an integer";
+    static final String ID_TOO_SMALL = "ID can't be less or equal than 0";
+    static final String ID_TOO_BIG = "ID can't be more or equal than 10000";
+    static final String PRICE_NOT_DOUBLE = "'Price' should be a double";
+    static final String PRICE_TOO_SMALL = "Price can't be less or equal than 0";
+    static final String PRICE_TOO_BIG = "Price can't be more or equal than 10000";
+    static final String PRICE_DECIMALS = "Price: Incorrect number of decimal digits";
+    static final String QUANTITY_NOT_LONG = "'Quantity' should be a long";
+    static final String QUANTITY_TOO_SMALL = "Quantity can't be less or equal than 0";
+    static final String QUANTITY_TOO_BIG = "Quantity can't be more or equal than 10000";
+    static final String SIDE_INCORRECT = "side: Incorrect value";
+
+    enum Expectation { EXACT_MESSAGE, REJECTED, NO_SERVER_ERROR }
+
+    record FuzzCase(String category, byte[] body, Expectation expectation, String message) {
+
+        String preview() {
+            var text = new String(body, 0, Math.min(body.length, 160), StandardCharsets.UTF_8);
+            return body.length > 160 ? text + "... (" + body.length + " bytes)" : text;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: CreateOrderFuzzer <baseUrl> [cases] [concurrency] [seed]");
+            System.exit(2);
+        }
+        var uri = URI.create(args[0] + "/order/create");
+        long cases = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        System.out.println("seed=" + seed);
+
+        var executor = Executors.newFixedThreadPool(Math.min(concurrency, 32));
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+        var permits = new Semaphore(concurrency);
+        var stats = new TreeMap<String, CategoryStats>();
+        var findings = new AtomicLong();
+        var random = new Random(seed);
+
+        long startNanos = System.nanoTime();
+        for (long i = 0; i < cases; i++) {
+            var fuzzCase = generate(random);
+            var categoryStats = stats.computeIfAbsent(fuzzCase.category(), c -> new CategoryStats());
+            var request = HttpRequest.newBuilder(uri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(fuzzCase.body()))
+                    .build();
+            permits.acquire();
+            long sentNanos = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                long latencyNanos = System.nanoTime() - sentNanos;
+                var problem = error != null ? "no response: " + error : verify(fuzzCase, response);
+                categoryStats.record(latencyNanos, fuzzCase, problem != null);
+                if (problem != null && findings.incrementAndGet() <= MAX_PRINTED_FINDINGS) {
+                    System.out.println("FINDING [" + fuzzCase.category() + "] " + problem + "\n  payload: " + fuzzCase.preview());
+                }
+                permits.release();
+            });
+        }
+        permits.acquire(concurrency);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        System.out.printf("%d cases in %.1fs (%.0f req/s), %d findings%n",
+                cases, elapsedNanos / 1e9, cases / (elapsedNanos / 1e9), findings.get());
+        stats.forEach((category, categoryStats) -> System.out.println(category + ": " + categoryStats));
+        System.exit(findings.get() == 0 ? 0 : 1);
+    }
+
+    // Возвращает описание нарушения или null, если ответ соответствует ожиданию
+    static String verify(FuzzCase fuzzCase, HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status >= 500) {
+            return "server error " + status;
+        }
+        if (fuzzCase.expectation() == Expectation.NO_SERVER_ERROR) {
+            return null;
+        }
+        // 413 - законный отказ для тела, которое сервер не стал дочитывать, но сообщения из документации в нем нет
+        if (status == 413 && fuzzCase.expectation() == Expectation.REJECTED) {
+            return null;
+        }
+        if (status != 400) {
+            return "expected 400, got " + status;
+        }
+        if (fuzzCase.expectation() == Expectation.EXACT_MESSAGE) {
+            String message;
+            try {
+                message = MAPPER.readTree(response.body()).path("message").asText(null);
+            } catch (Exception e) {
+                return "error body is not JSON: " + response.body();
+            }
+            if (!fuzzCase.message().equals(message)) {
+                return "expected message '" + fuzzCase.message() + "', got '" + message + "'";
+            }
+        }
+        return null;
+    }
+
+    static FuzzCase generate(Random random) {
+        int roll = random.nextInt(1000);
+        if (roll < 150) {
+            return invalidId(random);
+        }
+        if (roll < 350) {
+            return invalidPrice(random);
+        }
+        if (roll < 500) {
+            return invalidQuantity(random);
+        }
+        if (roll < 600) {
+            return invalidSide(random);
+        }
+        if (roll < 680) {
+            return missingFields(random);
+        }
+        if (roll < 740) {
+            return duplicatedFields(random);
+        }
+        if (roll < 820) {
+            return wrongTypes(random);
+        }
+        if (roll < 880) {
+            return extremeNumbers(random);
+        }
+        if (roll < 940) {
+            return oddEncodings(random);
+        }
+        if (roll < 995) {
+            return malformed(random);
+        }
+        return huge(random);
+    }
+
+    private static FuzzCase invalidId(Random random) {
+        String id = switch (random.nextInt(8)) {
+            case 0 -> Integer.toString(-random.nextInt(0, Integer.MAX_VALUE));
+            case 1 -> Integer.toString(random.nextInt(10000, Integer.MAX_VALUE));
+            case 2 -> "0";
+            case 3 -> Long.toString(Integer.MAX_VALUE + 1L + random.nextLong(0, Long.MAX_VALUE / 2));
+            case 4 -> random.nextInt(1, 10000) + "." + random.nextInt(10);
+            case 5 -> pick(random, "", " ", "1 ", "0x10", "1e3", "+5", "١٢", "NaN", "!*", "string");
+            case 6 -> "9".repeat(random.nextInt(20, 400));
+            default -> randomText(random, random.nextInt(1, 40));
+        };
+        String message;
+        try {
+            int value = Integer.parseInt(id);
+            message = value <= 0 ? ID_TOO_SMALL : value >= 10000 ? ID_TOO_BIG : null;
+        } catch (NumberFormatException e) {
+            message = ID_NOT_INTEGER;
+        }
+        if (message == null) {
+            return withFields("id-invalid", quote(id), validPrice(random), validQuantity(random), validSide(random),
+                    Expectation.NO_SERVER_ERROR, null);
+        }
+        return withFields("id-invalid", quote(id), validPrice(random), validQuantity(random), validSide(random),
+                Expectation.EXACT_MESSAGE, message);
+    }
+
+    private static FuzzCase invalidPrice(Random random) {
+        String price;
+        String message;
+        switch (random.nextInt(6)) {
+            case 0 -> {
+                price = pick(random, "0", "0.00", "-0.01", "-0", "-9999.99", "-1e308", "-4.9e-324");
+                message = PRICE_TOO_SMALL;
+            }
+            case 1 -> {
+                price = pick(random, "10000", "10000.00", "10000.01", "1e308", "1.7976931348623157e308", "99999999999");
+                message = PRICE_TOO_BIG;
+            }
+            case 2 -> {
+                price = random.nextInt(1, 10000) + "." + String.format("%02d", random.nextInt(100)) + random.nextInt(1, 10);
+                message = PRICE_DECIMALS;
+            }
+            case 3 -> {
+                price = quote(pick(random, "string", "  ", "!*", "0.01.1", "1,5", "ten", ""));
+                message = PRICE_NOT_DOUBLE;
+            }
+            case 4 -> {
+                price = quote(randomText(random, random.nextInt(1, 30)));
+                message = PRICE_NOT_DOUBLE;
+            }
+            default -> {
+                price = "0." + "0".repeat(random.nextInt(2, 50)) + "1";
+                message = null;
+            }
+        }
+        return message == null
+                ? withFields("price-invalid", validId(random), price, validQuantity(random), validSide(random),
+                        Expectation.REJECTED, null)
+                : withFields("price-invalid", validId(random), price, validQuantity(random), validSide(random),
+                        Expectation.EXACT_MESSAGE, message);
+    }
+
+    private static FuzzCase invalidQuantity(Random random) {
+        String quantity;
+        String message;
+        switch (random.nextInt(4)) {
+            case 0 -> {
+                quantity = pick(random, "0", "-1", "-100", Long.toString(Long.MIN_VALUE));
+                message = QUANTITY_TOO_SMALL;
+            }
+            case 1 -> {
+                quantity = pick(random, "10000", "10001", Integer.toString(Integer.MAX_VALUE), Long.toString(Long.MAX_VALUE));
+                message = QUANTITY_TOO_BIG;
+            }
+            case 2 -> {
+                quantity = quote(pick(random, "string", "0.0", "!*", "  ", "1e3", ""));
+                message = QUANTITY_NOT_LONG;
+            }
+            default -> {
+                quantity = pick(random, "1.5", "9223372036854775808", "-9223372036854775809", "1e19", "0.0");
+                message = null;
+            }
+        }
+        return message == null
+                ? withFields("quantity-invalid", validId(random), validPrice(random), quantity, validSide(random),
+                        Expectation.REJECTED, null)
+                : withFields("quantity-invalid", validId(random), validPrice(random), quantity, validSide(random),
+                        Expectation.EXACT_MESSAGE, message);
+    }
+
+    private static FuzzCase invalidSide(Random random) {
+        var side = random.nextBoolean()
+                ? pick(random, "buy", "sell", "BUY", "SELL", "0", "1", "test", "", " Buy", "Sell ", "Buy\u0000")
+                : randomText(random, random.nextInt(1, 64));
+        return withFields("side-invalid", validId(random), validPrice(random), validQuantity(random), quote(side),
+                Expectation.EXACT_MESSAGE, SIDE_INCORRECT);
+    }
+
+    private static FuzzCase missingFields(Random random) {
+        var fields = validFields(random);
+        int mask = random.nextInt(1, 16);
+        var present = new ArrayList<String>();
+        for (int i = 0; i < fields.size(); i++) {
+            if ((mask & (1 << i)) == 0) {
+                present.add(fields.get(i));
+            }
+        }
+        // По CreateOrderTests обязательны только quantity и side: без id и price заказ создается (200)
+        var expectation = (mask & REQUIRED_FIELDS_MASK) != 0 ? Expectation.REJECTED : Expectation.NO_SERVER_ERROR;
+        return new FuzzCase("missing-field", utf8("{" + String.join(",", present) + "}"), expectation, null);
+    }
+
+    private static FuzzCase duplicatedFields(Random random) {
+        var fields = new ArrayList<>(validFields(random));
+        int copies = random.nextInt(1, random.nextInt(10) == 0 ? 10000 : 4);
+        for (int i = 0; i < copies; i++) {
+            fields.add(random.nextInt(fields.size() + 1), validFields(random).get(random.nextInt(4)));
+        }
+        return new FuzzCase("duplicated-field", utf8("{" + String.join(",", fields) + "}"),
+                Expectation.NO_SERVER_ERROR, null);
+    }
+
+    private static FuzzCase wrongTypes(Random random) {
+        var fields = validFields(random);
+        int field = random.nextInt(4);
+        var value = pick(random, "null", "true", "{}", "[]", "[1]", "{\"value\":1}", "\"\\u0000\"");
+        fields.set(field, "\"" + FIELD_NAMES[field] + "\":" + value);
+        // null равнозначен отсутствию поля, а отсутствие id или price допустимо
+        var expectation = value.equals("null") && (REQUIRED_FIELDS_MASK & (1 << field)) == 0
+                ? Expectation.NO_SERVER_ERROR : Expectation.REJECTED;
+        return new FuzzCase("wrong-type", utf8("{" + String.join(",", fields) + "}"), expectation, null);
+    }
+
+    private static FuzzCase extremeNumbers(Random random) {
+        var value = switch (random.nextInt(6)) {
+            case 0 -> "1e" + random.nextInt(300, Integer.MAX_VALUE);
+            case 1 -> "1e-" + random.nextInt(300, Integer.MAX_VALUE);
+            case 2 -> "1" + "0".repeat(random.nextInt(100, 100_000));
+            case 3 -> "0." + "1".repeat(random.nextInt(100, 100_000));
+            case 4 -> pick(random, "NaN", "Infinity", "-Infinity", "+1", ".5", "01", "1.", "--1");
+            default -> "-" + "9".repeat(random.nextInt(20, 5000));
+        };
+        var fields = validFields(random);
+        int field = random.nextInt(1, 3);
+        fields.set(field, "\"" + FIELD_NAMES[field] + "\":" + value);
+        return new FuzzCase("extreme-number", utf8("{" + String.join(",", fields) + "}"), Expectation.REJECTED, null);
+    }
+
+    private static FuzzCase oddEncodings(Random random) {
+        var json = "{" + String.join(",", validFields(random)) + "}";
+        var bytes = new ByteArrayOutputStream();
+        switch (random.nextInt(6)) {
+            case 0 -> {
+                bytes.writeBytes(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+                bytes.writeBytes(utf8(json));
+            }
+            case 1 -> bytes.writeBytes(json.getBytes(StandardCharsets.UTF_16));
+            case 2 -> bytes.writeBytes(utf8(json.replace("\"side\"", "\"\\u0073\\u0069\\u0064\\u0065\"")));
+            case 3 -> {
+                var raw = utf8(json);
+                raw[random.nextInt(raw.length)] = (byte) (int) pick(random, 0x80, 0xC0, 0xFF, 0xFE, 0xED);
+                bytes.writeBytes(raw);
+            }
+            case 4 -> bytes.writeBytes(utf8(json.replace("\"Buy\"", "\"\\uD800uy\"").replace("\"Sell\"", "\"S\\uDFFFll\"")));
+            default -> bytes.writeBytes(utf8(json.replace(",", ",\u0000").replace(":", "\u00A0:")));
+        }
+        return new FuzzCase("odd-encoding", bytes.toByteArray(), Expectation.NO_SERVER_ERROR, null);
+    }
+
+    private static FuzzCase malformed(Random random) {
+        var json = "{" + String.join(",", validFields(random)) + "}";
+        var body = switch (random.nextInt(8)) {
+            case 0 -> json.substring(0, random.nextInt(json.length()));
+            case 1 -> json + pick(random, "}", "garbage", ",", "{}");
+            case 2 -> pick(random, "", "null", "[]", "\"\"", "0", "true", "{", "}");
+            case 3 -> "[" + json + "]";
+            case 4 -> "[".repeat(random.nextInt(1000, 200_000));
+            case 5 -> "{\"a\":".repeat(random.nextInt(1000, 100_000)) + "1" + "}".repeat(random.nextInt(1000));
+            case 6 -> json.replace("\"", "'");
+            default -> json.replace(":", "=");
+        };
+        return new FuzzCase("malformed", utf8(body), Expectation.REJECTED, null);
+    }
+
+    private static FuzzCase huge(Random random) {
+        int size = random.nextInt(1 << 20, 8 << 20);
+        var fields = validFields(random);
+        int kind = random.nextInt(4);
+        var body = switch (kind) {
+            case 0 -> "{" + " ".repeat(size) + String.join(",", fields) + "}";
+            case 1 -> {
+                fields.set(3, "\"side\":\"" + "B".repeat(size) + "\"");
+                yield "{" + String.join(",", fields) + "}";
+            }
+            case 2 -> {
+                var extra = new StringBuilder();
+                for (int i = 0; extra.length() < size; i++) {
+                    extra.append(",\"f").append(i).append("\":").append(i);
+                }
+                yield "{" + String.join(",", fields) + extra + "}";
+            }
+            default -> {
+                fields.set(0, "\"id\":\"" + "1".repeat(size) + "\"");
+                yield "{" + String.join(",", fields) + "}";
+            }
+        };
+        // Пробелы и лишние поля не делают заказ невалидным: сервер вправе принять его или отказать,
+        // но не упасть. Огромные id и side в любом случае должны быть отклонены
+        var expectation = kind == 0 || kind == 2 ? Expectation.NO_SERVER_ERROR : Expectation.REJECTED;
+        return new FuzzCase("huge-body", utf8(body), expectation, null);
+    }
+
+    private static final String[] FIELD_NAMES = {"id", "price", "quantity", "side"};
+
+    // Биты обязательных полей в порядке FIELD_NAMES: quantity и side
+    private static final int REQUIRED_FIELDS_MASK = 0b1100;
+
+    private static FuzzCase withFields(String category, String id, String price, String quantity, String side,
+                                       Expectation expectation, String message) {
+        var json = "{\"id\":" + id + ",\"price\":" + price + ",\"quantity\":" + quantity + ",\"side\":" + side + "}";
+        return new FuzzCase(category, utf8(json), expectation, message);
+    }
+
+    private static List<String> validFields(Random random) {
+        return new ArrayList<>(List.of("\"id\":" + validId(random), "\"price\":" + validPrice(random),
+                "\"quantity\":" + validQuantity(random), "\"side\":" + validSide(random)));
+    }
+
+    private static String validId(Random random) {
+        return quote(Integer.toString(random.nextInt(1, 10000)));
+    }
+
+    private static String validPrice(Random random) {
+        return String.format("%d.%02d", random.nextInt(0, 10000), random.nextInt(1, 100));
+    }
+
+    private static String validQuantity(Random random) {
+        return Long.toString(random.nextLong(1, 10000));
+    }
+
+    private static String validSide(Random random) {
+        return quote(random.nextBoolean() ? "Buy" : "Sell");
+    }
+
+    private static String randomText(Random random, int length) {
+        var text = new StringBuilder();
+        while (text.length() < length) {
+            text.appendCodePoint(random.nextInt(4) == 0 ? random.nextInt(0x20, 0x2FFFF) : random.nextInt(0x20, 0x7F));
+        }
+        var result = text.toString();
+        // Слово "Buy"/"Sell" случайно не получится, но валидные id из цифр исключаем явно
+        return result.chars().allMatch(Character::isDigit) ? result + "x" : result;
+    }
+
+    private static String quote(String value) {
+        var quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    @SafeVarargs
+    private static <T> T pick(Random random, T... values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Распределение задержек по степеням двойки микросекунд и самый медленный случай категории
+    static final class CategoryStats {
+        private final long[] buckets = new long[64];
+        private long count;
+        private long failures;
+        private long maxNanos;
+        private String slowest;
+
+        synchronized void record(long latencyNanos, FuzzCase fuzzCase, boolean failed) {
+            buckets[63 - Long.numberOfLeadingZeros(Math.max(1, latencyNanos / 1000))]++;
+            count++;
+            if (failed) {
+                failures++;
+            }
+            if (latencyNanos > maxNanos) {
+                maxNanos = latencyNanos;
+                slowest = fuzzCase.preview();
+            }
+        }
+
+        private long percentileMicros(double p) {
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return 2L << i;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("count=%d findings=%d p50<=%dus p99<=%dus max=%.3fms slowest: %s",
+                    count, failures, percentileMicros(0.5), percentileMicros(0.99), maxNanos / 1e6, slowest);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import helpers.Http2Transport;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import pojo.Order;
+
+// Нагрузочная проверка линеаризуемости книги заказов (в духе Jepsen/Knossos).
+// Несколько потоков одновременно выполняют случайные createOrder/deleteOrderById/getOrderById/cleanOrderbook
+// над небольшим набором id, для каждой операции запоминаются моменты вызова и ответа. Полученная история
+// проверяется поиском Wing-Gong-Lowe: существует ли такой последовательный порядок операций, согласованный
+// с реальным временем, в котором каждый ответ сервера совпадает с ответом последовательной модели книги.
+// Нагрузка идет раундами: между раундами книга очищается, и каждый раунд проверяется отдельно,
+// чтобы размер истории для поиска оставался ограниченным.
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=tools.StressHarness
+//         -Dexec.args="http://localhost:8080/api 16 50 200 8 42"
+// Аргументы: baseUrl [потоков] [раундов] [операций в раунде] [различных id] [seed]
+public class StressHarness {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    enum Type { CREATE, DELETE, GET, CLEAN }
+
+    // Ответ со статусом не из контракта или без ответа вовсе: операция могла как выполниться, так и нет
+    static final int INDETERMINATE = -1;
+
+    static final class Op {
+        final int process;
+        final Type type;
+        final Order order;
+        long invokeNanos;
+        long completeNanos = Long.MAX_VALUE;
+        int status = INDETERMINATE;
+        Order returned;
+
+        Op(int process, Type type, Order order) {
+            this.process = process;
+            this.type = type;
+            this.order = order;
+        }
+
+        @Override
+        public String toString() {
+            var target = order == null ? "" : " " + order.getId()
+                    + (type == Type.CREATE ? " " + order.getPrice() + "/" + order.getQuantity() + "/" + order.getSide() : "");
+            var result = returned == null ? "" : " -> " + returned.getPrice() + "/" + returned.getQuantity() + "/" + returned.getSide();
+            return String.format("p%-3d %-6s%s [%d..%s] status=%d%s", process, type, target, invokeNanos,
+                    completeNanos == Long.MAX_VALUE ? "?" : Long.toString(completeNanos), status, result);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: StressHarness <baseUrl> [threads] [rounds] [opsPerRound] [keys] [seed]");
+            System.exit(2);
+        }
+        var transport = new Http2Transport(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int opsPerRound = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int keys = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        System.out.println("seed=" + seed);
+
+        var random = new Random(seed);
+        // Виртуальные потоки в Java 19 доступны только с --enable-preview, поэтому используется пул обычных потоков
+        var executor = Executors.newFixedThreadPool(threads);
+        int unknown = 0;
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                // Проверка раунда исходит из пустой книги, поэтому без успешной очистки результат бессмыслен
+                var cleaned = transport.cleanOrderbook().join();
+                if (cleaned.statusCode() != 200) {
+                    System.err.println("Round " + round + ": clean failed with " + cleaned.statusCode() + " " + cleaned.body());
+                    System.exit(1);
+                }
+                var history = runRound(transport, executor, random, threads, opsPerRound, keys);
+                var verdict = check(history);
+                if (verdict == Verdict.NOT_LINEARIZABLE) {
+                    System.out.println("Round " + round + ": history is NOT linearizable");
+                    history.sort(Comparator.comparingLong(op -> op.invokeNanos));
+                    history.forEach(System.out::println);
+                    System.exit(1);
+                }
+                if (verdict == Verdict.UNKNOWN) {
+                    unknown++;
+                }
+                System.out.println("Round " + round + ": " + history.size() + " ops " + verdict);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println(rounds + " rounds checked, " + unknown + " only per id");
+    }
+
+    static List<Op> runRound(Http2Transport transport, ExecutorService executor, Random random,
+                             int threads, int opsPerRound, int keys) throws InterruptedException {
+        // Операции генерируются заранее из общего seed, чтобы раунд можно было повторить
+        var perProcess = new ArrayList<List<Op>>();
+        for (int process = 0; process < threads; process++) {
+            var ops = new ArrayList<Op>();
+            for (int i = process; i < opsPerRound; i += threads) {
+                ops.add(randomOp(process, random, keys));
+            }
+            perProcess.add(ops);
+        }
+
+        var done = new CountDownLatch(threads);
+        var start = new CountDownLatch(1);
+        for (var ops : perProcess) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (var op : ops) {
+                        execute(transport, op);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        done.await();
+
+        var history = new ArrayList<Op>();
+        perProcess.forEach(history::addAll);
+        return history;
+    }
+
+    private static Op randomOp(int process, Random random, int keys) {
+        var id = Integer.toString(random.nextInt(1, keys + 1));
+        int roll = random.nextInt(100);
+        if (roll < 40) {
+            var order = new Order(id, random.nextInt(1, 1000000) / 100.0, random.nextLong(1, 10000),
+                    random.nextBoolean() ? "Buy" : "Sell");
+            return new Op(process, Type.CREATE, order);
+        }
+        var target = new Order();
+        target.setId(id);
+        if (roll < 65) {
+            return new Op(process, Type.DELETE, target);
+        }
+        if (roll < 98) {
+            return new Op(process, Type.GET, target);
+        }
+        return new Op(process, Type.CLEAN, null);
+    }
+
+    private static void execute(Http2Transport transport, Op op) {
+        op.invokeNanos = System.nanoTime();
+        try {
+            HttpResponse<String> response = switch (op.type) {
+                case CREATE -> transport.createOrder(op.order).join();
+                case DELETE -> transport.deleteOrderById(op.order.getId()).join();
+                case GET -> transport.getOrderById(op.order.getId()).join();
+                case CLEAN -> transport.cleanOrderbook().join();
+            };
+            int status = response.statusCode();
+            if (status != 200 && status != 400 && status != 404) {
+                return;
+            }
+            if (status == 200 && (op.type == Type.DELETE || op.type == Type.GET)) {
+                op.returned = MAPPER.readValue(response.body(), Order.class);
+            }
+            op.status = status;
+            op.completeNanos = System.nanoTime();
+        } catch (CompletionException | IOException e) {
+            // Операция без ответа остается незавершенной: она могла примениться в любой момент после вызова
+        }
+    }
+
+    enum Verdict { LINEARIZABLE, NOT_LINEARIZABLE, UNKNOWN }
+
+    // Предел числа состояний полного перебора для одной истории
+    private static final int SEARCH_BUDGET = 500_000;
+
+    // Линеаризуемость локальна: если в истории нет clean, затрагивающего все id, каждый id проверяется отдельно,
+    // что сильно сокращает перебор. С clean история проверяется целиком; если перебор не укладывается в
+    // SEARCH_BUDGET, остается только проверка по каждому id (с clean в каждой подыстории). Она необходима,
+    // но не достаточна, поэтому ее успех дает UNKNOWN. Незавершенные чтения на состояние не влияют и отбрасываются
+    static Verdict check(List<Op> history) {
+        var relevant = history.stream()
+                .filter(op -> op.type != Type.GET || op.status != INDETERMINATE)
+                .toList();
+        var cleans = relevant.stream().filter(op -> op.type == Type.CLEAN).toList();
+        if (!cleans.isEmpty()) {
+            try {
+                return isLinearizable(relevant) ? Verdict.LINEARIZABLE : Verdict.NOT_LINEARIZABLE;
+            } catch (SearchBudgetExceeded e) {
+                // переходим к проверке по id
+            }
+        }
+        var byId = new HashMap<String, List<Op>>();
+        for (var op : relevant) {
+            if (op.type != Type.CLEAN) {
+                byId.computeIfAbsent(op.order.getId(), id -> new ArrayList<>(cleans)).add(op);
+            }
+        }
+        try {
+            if (!byId.values().stream().allMatch(StressHarness::isLinearizable)) {
+                return Verdict.NOT_LINEARIZABLE;
+            }
+        } catch (SearchBudgetExceeded e) {
+            return Verdict.UNKNOWN;
+        }
+        return cleans.isEmpty() ? Verdict.LINEARIZABLE : Verdict.UNKNOWN;
+    }
+
+    private static final class SearchBudgetExceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SearchBudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Поиск Wing-Gong-Lowe с мемоизацией пар (множество линеаризованных операций, состояние модели)
+    private static boolean isLinearizable(List<Op> history) {
+        var ops = history.stream().sorted(Comparator.comparingLong(op -> op.invokeNanos)).toArray(Op[]::new);
+        var required = new BitSet();
+        for (int i = 0; i < ops.length; i++) {
+            if (ops[i].status != INDETERMINATE) {
+                required.set(i);
+            }
+        }
+        return search(ops, required, new BitSet(), Map.of(), new HashSet<>());
+    }
+
+    private record Configuration(BitSet linearized, Map<String, Order> book) {
+    }
+
+    private static boolean search(Op[] ops, BitSet required, BitSet linearized, Map<String, Order> book,
+                                  Set<Configuration> visited) {
+        var remaining = (BitSet) required.clone();
+        remaining.andNot(linearized);
+        if (remaining.isEmpty()) {
+            return true;
+        }
+
+        // Следующей может быть только операция, вызванная раньше, чем завершилась любая еще не линеаризованная.
+        // Операции отсортированы по моменту вызова, поэтому перебор заканчивается на первой вызванной позже
+        long horizon = Long.MAX_VALUE;
+        for (int i = remaining.nextSetBit(0); i >= 0; i = remaining.nextSetBit(i + 1)) {
+            horizon = Math.min(horizon, ops[i].completeNanos);
+        }
+        for (int i = linearized.nextClearBit(0); i < ops.length && ops[i].invokeNanos <= horizon;
+             i = linearized.nextClearBit(i + 1)) {
+            var next = apply(ops[i], book);
+            if (next == null) {
+                continue;
+            }
+            var nextLinearized = (BitSet) linearized.clone();
+            nextLinearized.set(i);
+            if (visited.size() >= SEARCH_BUDGET) {
+                throw new SearchBudgetExceeded();
+            }
+            if (visited.add(new Configuration(nextLinearized, next))
+                    && search(ops, required, nextLinearized, next, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Последовательная модель книги. Возвращает новое состояние или null, если ответ операции с ним не согласуется
+    private static Map<String, Order> apply(Op op, Map<String, Order> book) {
+        boolean indeterminate = op.status == INDETERMINATE;
+        switch (op.type) {
+            case CREATE -> {
+                if (book.containsKey(op.order.getId())) {
+                    return op.status == 400 ? book : null;
+                }
+                if (!indeterminate && op.status != 200) {
+                    return null;
+                }
+                var next = new HashMap<>(book);
+                next.put(op.order.getId(), op.order);
+                return Map.copyOf(next);
+            }
+            case DELETE -> {
+                var current = book.get(op.order.getId());
+                if (current == null) {
+                    return op.status == 404 ? book : null;
+                }
+                if (!indeterminate && (op.status != 200 || !sameOrder(current, op.returned))) {
+                    return null;
+                }
+                var next = new HashMap<>(book);
+                next.remove(op.order.getId());
+                return Map.copyOf(next);
+            }
+            case GET -> {
+                var current = book.get(op.order.getId());
+                if (current == null) {
+                    return op.status == 404 ? book : null;
+                }
+                return op.status == 200 && sameOrder(current, op.returned) ? book : null;
+            }
+            case CLEAN -> {
+                return indeterminate || op.status == 200 ? Map.of() : null;
+            }
+        }
+        throw new IllegalStateException("Unknown operation " + op.type);
+    }
+
+    private static boolean sameOrder(Order expected, Order actual) {
+        return actual != null
+                && expected.getPrice().equals(actual.getPrice())
+                && expected.getQuantity().equals(actual.getQuantity())
+                && expected.getSide().equalsIgnoreCase(actual.getSide());
+    }
+}
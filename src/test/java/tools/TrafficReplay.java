@@ -0,0 +1,172 @@
+package tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import helpers.TrafficCapture;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+// Воспроизведение лога, записанного TrafficCapture, на произвольном BASE_URL со сравнением ответов.
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=tools.TrafficReplay
+//         -Dexec.args="traffic.bin http://localhost:8080/api 1 64"
+// Скорость: 1 - как в записи, N - в N раз быстрее, max - без пауз между запросами.
+public class TrafficReplay {
+    private static final int MAX_PRINTED_DIFFS = 20;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: TrafficReplay <captureFile> <baseUrl> [1|N|max] [connections]");
+            System.exit(2);
+        }
+        var records = TrafficCapture.read(Path.of(args[0]));
+        var baseUrl = args[1];
+        double speed = args.length > 2 && !args[2].equals("max") ? Double.parseDouble(args[2]) : 0;
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+
+        var result = replay(records, baseUrl, speed, connections);
+        System.out.println(result);
+        System.exit(result.mismatches() + result.errors() == 0 ? 0 : 1);
+    }
+
+    // speed <= 0 означает максимальную скорость
+    public static Result replay(List<TrafficCapture.Record> captured, String baseUrl, double speed, int connections)
+            throws InterruptedException {
+        // Записи попадают в лог в порядке завершения ответов, а воспроизводить их нужно в порядке отправки
+        var records = captured.stream().sorted(Comparator.comparingLong(TrafficCapture.Record::requestNanos)).toList();
+        var executor = Executors.newFixedThreadPool(connections);
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+        var permits = new Semaphore(connections);
+        var done = new CountDownLatch(records.size());
+        var mismatches = new AtomicInteger();
+        var errors = new AtomicInteger();
+        var latencies = new long[records.size()];
+
+        // После сортировки первая запись - самая ранняя, от нее отсчитывается расписание
+        long firstNanos = records.isEmpty() ? 0 : records.get(0).requestNanos();
+        long startNanos = System.nanoTime();
+        long elapsedNanos;
+        try {
+            for (int i = 0; i < records.size(); i++) {
+                var record = records.get(i);
+                if (speed > 0) {
+                    long dueNanos = startNanos + (long) ((record.requestNanos() - firstNanos) / speed);
+                    long waitNanos;
+                    while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(waitNanos);
+                    }
+                }
+                // Запрос строится до захвата разрешения: исключение в toRequest не должно уносить с собой permit
+                var request = toRequest(baseUrl, record);
+                permits.acquire();
+                int index = i;
+                long sentNanos = System.nanoTime();
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .whenComplete((response, error) -> {
+                            latencies[index] = System.nanoTime() - sentNanos;
+                            if (error != null) {
+                                errors.incrementAndGet();
+                                System.err.println(record.method() + " " + record.path() + " failed: " + error);
+                            } else if (!sameResponse(record, response)) {
+                                if (mismatches.incrementAndGet() <= MAX_PRINTED_DIFFS) {
+                                    printDiff(record, response);
+                                }
+                            }
+                            permits.release();
+                            done.countDown();
+                        });
+            }
+            done.await();
+            elapsedNanos = System.nanoTime() - startNanos;
+        } finally {
+            executor.shutdown();
+        }
+
+        Arrays.sort(latencies);
+        return new Result(records.size(), mismatches.get(), errors.get(), elapsedNanos,
+                percentile(latencies, 0.5), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+    }
+
+    private static HttpRequest toRequest(String baseUrl, TrafficCapture.Record record) {
+        var builder = HttpRequest.newBuilder(URI.create(baseUrl + record.path()));
+        record.headers().forEach(builder::header);
+        if (record.requestBody() != null) {
+            builder.method(record.method(), HttpRequest.BodyPublishers.ofByteArray(record.requestBody()));
+        } else {
+            builder.method(record.method(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    // Тела сравниваются как JSON, чтобы порядок полей и пробелы не давали ложных расхождений
+    private static boolean sameResponse(TrafficCapture.Record record, HttpResponse<byte[]> response) {
+        if (record.status() != response.statusCode()) {
+            return false;
+        }
+        var expected = record.responseBody() == null ? new byte[0] : record.responseBody();
+        try {
+            var actual = decodedBody(response);
+            return Arrays.equals(expected, actual) || MAPPER.readTree(expected).equals(MAPPER.readTree(actual));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // В логе тело ответа хранится распакованным, поэтому сжатый по Accept-Encoding ответ распаковывается перед сравнением
+    private static byte[] decodedBody(HttpResponse<byte[]> response) throws IOException {
+        var encoding = response.headers().firstValue("Content-Encoding").orElse("identity");
+        var compressed = new ByteArrayInputStream(response.body());
+        return switch (encoding.toLowerCase()) {
+            case "gzip" -> new GZIPInputStream(compressed).readAllBytes();
+            case "deflate" -> new InflaterInputStream(compressed).readAllBytes();
+            default -> response.body();
+        };
+    }
+
+    private static void printDiff(TrafficCapture.Record record, HttpResponse<byte[]> response) {
+        System.out.println("DIFF " + record.method() + " " + record.path());
+        System.out.println("  expected " + record.status() + " " + asText(record.responseBody()));
+        byte[] actual;
+        try {
+            actual = decodedBody(response);
+        } catch (IOException e) {
+            actual = response.body();
+        }
+        System.out.println("  actual   " + response.statusCode() + " " + asText(actual));
+    }
+
+    private static String asText(byte[] body) {
+        return body == null ? "" : new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    public record Result(int requests, int mismatches, int errors, long elapsedNanos,
+                         long p50Nanos, long p99Nanos, long maxNanos) {
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d mismatches=%d errors=%d elapsed=%.3fs p50=%.3fms p99=%.3fms max=%.3fms",
+                    requests, mismatches, errors, elapsedNanos / 1e9,
+                    p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6);
+        }
+    }
+}